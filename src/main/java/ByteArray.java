@@ -1,3 +1,4 @@
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Iterator;
 
@@ -49,11 +50,18 @@ public final class ByteArray implements Iterable<Byte> {
     }
 
     public ByteArray sub(int start, int length) {
-        return of(array, start, length);
+        return of(array, this.start + start, length);
     }
 
     public ByteArray sub(int start) {
-        return of(array, start, length - start);
+        return of(array, this.start + start, length - start);
+    }
+
+    /**
+     * @return a ByteBuffer backed by the same bytes (no copy), with position 0 and limit {@link ByteArray#size()}
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(array, start, length).slice();
     }
 
     private void checkIndex(int index) {
@@ -75,7 +83,7 @@ public final class ByteArray implements Iterable<Byte> {
 
             @Override
             public Byte next() {
-                checkIndex(index);
+                checkIndex(index - start);
                 return array[index++];
             }
         };
@@ -0,0 +1,124 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Compact binary encoding of values of type T. Codecs for composite values are built out of the codecs
+ * of their parts (see {@link Codecs}).
+ * <p>
+ * Decoding is zero-copy where possible: decoded {@link ByteArray}s are views on the bytes being decoded.
+ *
+ * @author stephanebersier
+ */
+@SuppressWarnings("unused")
+public interface Codec<T> {
+
+    /**
+     * @return the exact number of bytes {@link Codec#encode(Object, ByteBuffer)} will write for the given value
+     */
+    int size(T value);
+
+    /**
+     * Writes the given value at the current position of the buffer, and advances the position past it.
+     *
+     * @throws java.nio.BufferOverflowException if there isn't enough room left in the buffer
+     */
+    void encode(T value, ByteBuffer buffer);
+
+    /**
+     * Reads a value at the current position of the buffer, and advances the position past it.
+     *
+     * @throws java.nio.BufferUnderflowException if the buffer ends before the value does
+     * @throws java.lang.IllegalArgumentException if the bytes do not represent a valid value
+     */
+    T decode(ByteBuffer buffer);
+
+    /**
+     * @return a new byte array of the exact size needed, containing the encoded value
+     */
+    default ByteArray encode(T value) {
+        final ByteArray bytes = ByteArray.of(new byte[size(value)]);
+        encode(value, bytes.asByteBuffer());
+        return bytes;
+    }
+
+    /**
+     * @return the value encoded at the start of the given bytes (which may be followed by other bytes)
+     */
+    default T decode(ByteArray bytes) {
+        return decode(bytes.asByteBuffer());
+    }
+
+    /**
+     * Writes each of the given values to the stream, each preceded by its size,
+     * so that they can be read back one at a time with {@link Codec#readAll(InputStream)}.
+     */
+    default void writeAll(Iterator<? extends T> values, OutputStream out) throws IOException {
+        byte[] scratch = new byte[64];
+        while (values.hasNext()) {
+            final T value = values.next();
+            final int size = size(value);
+            if (scratch.length < size) {
+                scratch = new byte[Math.max(size, 2 * scratch.length)];
+            }
+            encode(value, ByteBuffer.wrap(scratch, 0, size));
+            Codecs.writeVarint(size, out);
+            out.write(scratch, 0, size);
+        }
+    }
+
+    /**
+     * Lazily reads back values written with {@link Codec#writeAll(Iterator, OutputStream)},
+     * until the end of the stream is reached.
+     * <p>
+     * IOExceptions thrown by the stream are rethrown wrapped in UncheckedIOExceptions.
+     * A value whose decoding does not use exactly the number of bytes it was written with
+     * causes an IllegalArgumentException.
+     */
+    default Iterator<T> readAll(InputStream in) {
+        return new Iterator<T>() {
+            private boolean sizeRead = false;
+            private int nextSize;
+
+            @Override
+            public boolean hasNext() {
+                if (!sizeRead) {
+                    try {
+                        nextSize = Codecs.readVarint(in);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    sizeRead = true;
+                }
+                return nextSize >= 0;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                // each value gets its own array, as decoded values may be views on it
+                final byte[] bytes;
+                try {
+                    bytes = Codecs.readFully(in, nextSize);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                sizeRead = false;
+                final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                final T value = decode(buffer);
+                if (buffer.hasRemaining()) {
+                    throw new IllegalArgumentException(
+                            "Value was decoded from " + buffer.position() + " of its " + bytes.length + " bytes!");
+                }
+                return value;
+            }
+        };
+    }
+}
@@ -0,0 +1,385 @@
+import either.Either;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Codecs for common types, and combinators to build codecs for composite types.
+ * <p>
+ * Lengths and integers are written as varints (7 bits per byte, least significant group first),
+ * so small values only take one byte.
+ *
+ * @author stephanebersier
+ */
+@SuppressWarnings("unused")
+public final class Codecs {
+    private static final byte LEFT_TAG = 0;
+    private static final byte RIGHT_TAG = 1;
+    private static final int READ_BLOCK_LENGTH = 1 << 16;
+
+    private Codecs() {
+    }
+
+    /**
+     * Varint length followed by the bytes. Decoded byte arrays are views on the decoded bytes whenever
+     * they are backed by an accessible array (no copy).
+     */
+    public static final Codec<ByteArray> BYTE_ARRAY = new Codec<ByteArray>() {
+        @Override
+        public int size(ByteArray value) {
+            return varintSize(value.size()) + value.size();
+        }
+
+        @Override
+        public void encode(ByteArray value, ByteBuffer buffer) {
+            writeVarint(value.size(), buffer);
+            buffer.put(value.asByteBuffer());
+        }
+
+        @Override
+        public ByteArray decode(ByteBuffer buffer) {
+            final int length = readLength(buffer);
+            if (buffer.hasArray()) {
+                final ByteArray view = ByteArray.of(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+                buffer.position(buffer.position() + length);
+                return view;
+            } else {
+                final byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                return ByteArray.of(bytes);
+            }
+        }
+    };
+
+    /**
+     * Varint length followed by the UTF-8 bytes of the string.
+     */
+    public static final Codec<String> STRING = new Codec<String>() {
+        @Override
+        public int size(String value) {
+            final int length = utf8Length(value);
+            return varintSize(length) + length;
+        }
+
+        @Override
+        public void encode(String value, ByteBuffer buffer) {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length, buffer);
+            buffer.put(bytes);
+        }
+
+        @Override
+        public String decode(ByteBuffer buffer) {
+            final int length = readLength(buffer);
+            final String string;
+            if (buffer.hasArray()) {
+                string = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+            } else {
+                final byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                string = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return string;
+        }
+    };
+
+    /**
+     * Zigzag varint, so that integers of small absolute value only take one byte.
+     */
+    public static final Codec<Integer> INTEGER = new Codec<Integer>() {
+        @Override
+        public int size(Integer value) {
+            return varintSize(zigzag(value));
+        }
+
+        @Override
+        public void encode(Integer value, ByteBuffer buffer) {
+            writeVarint(zigzag(value), buffer);
+        }
+
+        @Override
+        public Integer decode(ByteBuffer buffer) {
+            final long zigzag = readVarint(buffer);
+            if ((zigzag & ~0xFFFFFFFFL) != 0) {
+                throw new IllegalArgumentException("Varint does not fit in an int: " + Long.toUnsignedString(zigzag));
+            }
+            return (int) ((zigzag >>> 1) ^ -(zigzag & 1));
+        }
+    };
+
+    /**
+     * Zigzag varint, so that longs of small absolute value only take one byte.
+     */
+    public static final Codec<Long> LONG = new Codec<Long>() {
+        @Override
+        public int size(Long value) {
+            return varintSize(zigzag(value));
+        }
+
+        @Override
+        public void encode(Long value, ByteBuffer buffer) {
+            writeVarint(zigzag(value), buffer);
+        }
+
+        @Override
+        public Long decode(ByteBuffer buffer) {
+            final long zigzag = readVarint(buffer);
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+    };
+
+    /**
+     * The first element followed by the second one.
+     */
+    public static <A, B> Codec<Pair<A, B>> pair(Codec<A> first, Codec<B> second) {
+        return new Codec<Pair<A, B>>() {
+            @Override
+            public int size(Pair<A, B> value) {
+                return first.size(value.first()) + second.size(value.second());
+            }
+
+            @Override
+            public void encode(Pair<A, B> value, ByteBuffer buffer) {
+                first.encode(value.first(), buffer);
+                second.encode(value.second(), buffer);
+            }
+
+            @Override
+            public Pair<A, B> decode(ByteBuffer buffer) {
+                final A a = first.decode(buffer);
+                final B b = second.decode(buffer);
+                return Pair.of(a, b);
+            }
+        };
+    }
+
+    /**
+     * A tag byte (0 for left, 1 for right) followed by the value.
+     */
+    public static <L, R> Codec<Either<L, R>> either(Codec<L> left, Codec<R> right) {
+        return new Codec<Either<L, R>>() {
+            @Override
+            public int size(Either<L, R> value) {
+                return 1 + value.<Integer>match(left::size, right::size);
+            }
+
+            @Override
+            public void encode(Either<L, R> value, ByteBuffer buffer) {
+                final Consumer<L> leftEncoder = l -> {
+                    buffer.put(LEFT_TAG);
+                    left.encode(l, buffer);
+                };
+                final Consumer<R> rightEncoder = r -> {
+                    buffer.put(RIGHT_TAG);
+                    right.encode(r, buffer);
+                };
+                value.match(leftEncoder, rightEncoder);
+            }
+
+            @Override
+            public Either<L, R> decode(ByteBuffer buffer) {
+                final byte tag = buffer.get();
+                switch (tag) {
+                    case LEFT_TAG:
+                        return Either.inl(left.decode(buffer));
+                    case RIGHT_TAG:
+                        return Either.inr(right.decode(buffer));
+                    default:
+                        throw new IllegalArgumentException("Invalid Either tag: " + tag);
+                }
+            }
+        };
+    }
+
+    /**
+     * Varint element count followed by the elements, each of which must be encoded on at least one byte.
+     * Lists are decoded as {@link ImmutableList}s.
+     */
+    public static <T> Codec<List<T>> list(Codec<T> element) {
+        return new Codec<List<T>>() {
+            @Override
+            public int size(List<T> value) {
+                int size = varintSize(value.size());
+                for (T t : value) {
+                    size += element.size(t);
+                }
+                return size;
+            }
+
+            @Override
+            public void encode(List<T> value, ByteBuffer buffer) {
+                writeVarint(value.size(), buffer);
+                for (T t : value) {
+                    element.encode(t, buffer);
+                }
+            }
+
+            @Override
+            public List<T> decode(ByteBuffer buffer) {
+
+                // every element takes at least one byte, so the count cannot exceed the remaining bytes
+                final int count = readLength(buffer);
+                final Object[] elements = new Object[count];
+                for (int i = 0; i < count; i++) {
+                    elements[i] = element.decode(buffer);
+                }
+                return ImmutableList.wrap(elements);
+            }
+        };
+    }
+
+    /**
+     * @return the number of bytes needed to write the given value as an (unsigned) varint
+     */
+    public static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Writes the given value as an (unsigned) varint.
+     */
+    public static void writeVarint(long value, ByteBuffer buffer) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Writes the given value as an (unsigned) varint.
+     */
+    public static void writeVarint(long value, OutputStream out) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * @throws java.lang.IllegalArgumentException if the varint is longer than 10 bytes or does not fit in a long
+     */
+    public static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = buffer.get();
+
+            // only the lowest bit of the 10th byte still fits in a long
+            if (shift == 63 && (b & 0x7F) > 1) {
+                throw new IllegalArgumentException("Varint does not fit in a long!");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint is too long!");
+    }
+
+    /**
+     * Reads a non-negative int written as a varint.
+     *
+     * @return the value read, or -1 if the stream ended before its first byte
+     * @throws java.io.EOFException if the stream ended in the middle of the varint
+     * @throws java.lang.IllegalArgumentException if the value does not fit in a non-negative int
+     */
+    public static int readVarint(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            final int b = in.read();
+            if (b < 0) {
+                if (shift == 0) {
+                    return -1;
+                }
+                throw new EOFException("Stream ended in the middle of a varint!");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return checkedLength(value);
+            }
+        }
+        throw new IllegalArgumentException("Varint is too long!");
+    }
+
+    /**
+     * Reads a length (or a count of elements of at least one byte each).
+     *
+     * @throws java.nio.BufferUnderflowException if the length exceeds the number of remaining bytes
+     */
+    private static int readLength(ByteBuffer buffer) {
+        final int length = checkedLength(readVarint(buffer));
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        return length;
+    }
+
+    /**
+     * Reads exactly the given number of bytes from the stream. The bytes are read into an array that grows
+     * as they arrive, so that a corrupt length cannot trigger a huge allocation on its own.
+     *
+     * @throws java.io.EOFException if the stream ends before all the bytes could be read
+     */
+    static byte[] readFully(InputStream in, int length) throws IOException {
+        byte[] bytes = new byte[Math.min(length, READ_BLOCK_LENGTH)];
+        int read = 0;
+        while (read < length) {
+            if (read == bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * bytes.length));
+            }
+            final int count = in.read(bytes, read, bytes.length - read);
+            if (count < 0) {
+                throw new EOFException("Stream ended in the middle of a value!");
+            }
+            read += count;
+        }
+        return bytes;
+    }
+
+    private static int checkedLength(long length) {
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid length: " + length);
+        }
+        return (int) length;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static int utf8Length(String string) {
+        final int length = string.length();
+        int utf8Length = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = string.charAt(i);
+            if (c < 0x80) {
+                utf8Length += 1;
+            } else if (c < 0x800) {
+                utf8Length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1))) {
+                utf8Length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                utf8Length += 1; // unpaired surrogates get encoded as '?'
+            } else {
+                utf8Length += 3;
+            }
+        }
+        return utf8Length;
+    }
+}
@@ -0,0 +1,196 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable random-access list, backed by a slice of an array that can be shared between many lists.
+ * <p>
+ * {@link ImmutableList#tail()}, {@link ImmutableList#reversed()} and {@link ImmutableList#subList(int, int)}
+ * run in O(1), as they only create a new view on the same array.
+ * {@link ImmutableList#prepend(Object)} runs in amortized O(1): the backing array keeps some free room in front
+ * of (or, for reversed lists, after) the elements, which the first list to prepend to a given slice may claim.
+ *
+ * @author stephanebersier
+ */
+@SuppressWarnings("unused")
+public final class ImmutableList<T> extends AbstractList<T> implements RandomAccess {
+    private static final ImmutableList<?> EMPTY = new ImmutableList<>(new Backing(new Object[0], 0, 0), 0, 0, false);
+
+    private final Backing backing;
+    private final int start;
+    private final int length;
+    private final boolean reversed;
+
+    // slot of the backing array claimed by the prepend that created this list, and the element written into it;
+    // the element is read from here rather than from the array, so that it is visible to any thread
+    private final int claimedSlot;
+    private final Object claimed;
+
+    private ImmutableList(Backing backing, int start, int length, boolean reversed) {
+        this(backing, start, length, reversed, -1, null);
+    }
+
+    private ImmutableList(Backing backing, int start, int length, boolean reversed, int claimedSlot, Object claimed) {
+        this.backing = backing;
+        this.start = start;
+        this.length = length;
+        this.reversed = reversed;
+        this.claimedSlot = claimedSlot;
+        this.claimed = claimed;
+    }
+
+    /**
+     * @return the empty list
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ImmutableList<T> empty() {
+        return (ImmutableList<T>) EMPTY;
+    }
+
+    /**
+     * @return an immutable list with the given elements
+     */
+    @SafeVarargs
+    public static <T> ImmutableList<T> of(T... elements) {
+        return wrap(Arrays.copyOf(elements, elements.length, Object[].class));
+    }
+
+    /**
+     * Runs in O(1) if the given collection already is an ImmutableList, and in O(collection.size()) otherwise.
+     *
+     * @return an immutable list with the same elements as the given collection, in the same order
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ImmutableList<T> copyOf(Collection<? extends T> collection) {
+        if (collection instanceof ImmutableList) {
+            return (ImmutableList<T>) collection;
+        } else {
+            return wrap(collection.toArray());
+        }
+    }
+
+    /**
+     * Wraps the given array without copying it; it must not be modified afterwards.
+     */
+    static <T> ImmutableList<T> wrap(Object[] array) {
+        return new ImmutableList<>(new Backing(array, 0, array.length), 0, array.length, false);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        final int slot = reversed ? start + length - 1 - index : start + index;
+        return (T) (slot == claimedSlot ? claimed : backing.array[slot]);
+    }
+
+    @Override
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Runs in O(1).
+     *
+     * @return this list without its first element
+     * @throws java.lang.IllegalArgumentException if this list is empty
+     */
+    public ImmutableList<T> tail() {
+        if (isEmpty()) {
+            throw new IllegalArgumentException("Cannot get tail of empty list!");
+        }
+        return subList(1, length);
+    }
+
+    /**
+     * Runs in O(1).
+     *
+     * @return this list in reversed order
+     */
+    public ImmutableList<T> reversed() {
+        return new ImmutableList<>(backing, start, length, !reversed, claimedSlot, claimed);
+    }
+
+    /**
+     * Runs in O(1).
+     *
+     * @return the part of this list between fromIndex (inclusive) and toIndex (exclusive)
+     */
+    @Override
+    public ImmutableList<T> subList(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > length || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("[" + fromIndex + ", " + toIndex + ") of " + length);
+        }
+        final int subStart = reversed ? start + length - toIndex : start + fromIndex;
+        return new ImmutableList<>(backing, subStart, toIndex - fromIndex, reversed, claimedSlot, claimed);
+    }
+
+    /**
+     * Runs in amortized O(1). This list is left unchanged.
+
+     * @return a list with the given element followed by the elements of this list
+     */
+    public ImmutableList<T> prepend(T element) {
+        if (reversed) {
+            final int slot = start + length;
+            if (backing.claimAfter(slot, element)) {
+                return new ImmutableList<>(backing, start, length + 1, true, slot, element);
+            }
+        } else {
+            final int slot = start - 1;
+            if (backing.claimBefore(slot, element)) {
+                return new ImmutableList<>(backing, slot, length + 1, false, slot, element);
+            }
+        }
+
+        // no free room next to this slice: copy it to a new array, leaving room in front for further prepends
+        final int room = Math.max(length, 1);
+        final Object[] array = new Object[room + length];
+        for (int i = 0; i < length; i++) {
+            array[room + i] = get(i);
+        }
+        array[room - 1] = element;
+        return new ImmutableList<>(new Backing(array, room - 1, room + length), room - 1, length + 1, false);
+    }
+
+    /**
+     * Array shared by several lists. Only the slots between lo (inclusive) and hi (exclusive) are in use;
+     * the remaining ones can be claimed, once, by a list that wants to grow into them.
+     * <p>
+     * A list reads the slot it claimed from its own final field. The slots claimed before it were written
+     * before that field was frozen, so they are visible through it as well.
+     */
+    private static final class Backing {
+        private final Object[] array;
+        private int lo;
+        private int hi;
+
+        private Backing(Object[] array, int lo, int hi) {
+            this.array = array;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        synchronized boolean claimBefore(int slot, Object element) {
+            if (slot < 0 || slot != lo - 1) {
+                return false;
+            }
+            array[slot] = element;
+            lo = slot;
+            return true;
+        }
+
+        synchronized boolean claimAfter(int slot, Object element) {
+            if (slot >= array.length || slot != hi) {
+                return false;
+            }
+            array[slot] = element;
+            hi = slot + 1;
+            return true;
+        }
+    }
+}
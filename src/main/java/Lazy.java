@@ -3,13 +3,15 @@ import java.util.function.Supplier;
 
 /**
  * Represents a lazy value. It only gets computed when needed for the first time.
+ * <p>
+ * Thread-safe: the supplier gets called at most once, even if several threads ask for the value at the same time.
  *
  * @author stephanebersier
  */
 @SuppressWarnings("unused")
 public final class Lazy<T> implements Supplier<T> {
-    private Supplier<T> supplier;
-    private T value;
+    private volatile Supplier<T> supplier;
+    private volatile T value;
 
     private Lazy(Supplier<T> supplier) {
         this.supplier = supplier;
@@ -24,6 +26,17 @@ public final class Lazy<T> implements Supplier<T> {
         return new Lazy<>(supplier);
     }
 
+    /**
+     * @param value may not be null
+     * @param <U>   the type of the value
+     * @return a lazy value that has already been computed
+     */
+    public static <U> Lazy<U> computed(U value) {
+        final Lazy<U> lazy = new Lazy<>(null);
+        lazy.value = value;
+        return lazy;
+    }
+
     /**
      * The value gets computed only on the first call to this function, after which it is recalled from memory.
      *
@@ -31,11 +44,18 @@ public final class Lazy<T> implements Supplier<T> {
      */
     @Override
     public T get() {
-        if (!isComputed()) {
-            value = supplier.get();
-            supplier = null;
+        T result = value;
+        if (result == null) {
+            synchronized (this) {
+                result = value;
+                if (result == null) {
+                    result = supplier.get();
+                    value = result;
+                    supplier = null;
+                }
+            }
         }
-        return value;
+        return result;
     }
 
     /**
@@ -67,16 +87,20 @@ public final class Lazy<T> implements Supplier<T> {
 
         final Lazy<?> that = (Lazy<?>) o;
 
-        if (this.isComputed()) {
-            return that.isComputed() && this.get().equals(that.get());
+        // get() sets the value before clearing the supplier, so a null supplier means the value is visible
+        final Supplier<?> thisSupplier = this.supplier;
+        final Supplier<?> thatSupplier = that.supplier;
+        if (thisSupplier == null) {
+            return thatSupplier == null && this.value.equals(that.value);
         } else {
-            return !that.isComputed() && this.supplier.equals(that.supplier);
+            return thisSupplier.equals(thatSupplier);
         }
     }
 
     @Override
     public int hashCode() {
-        return isComputed() ? get().hashCode() : supplier.hashCode();
+        final Supplier<T> pendingSupplier = supplier;
+        return pendingSupplier == null ? value.hashCode() : pendingSupplier.hashCode();
     }
 
     @Override
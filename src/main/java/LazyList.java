@@ -0,0 +1,332 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Immutable, possibly infinite list whose cells only get computed when needed for the first time,
+ * after which they are recalled from memory. Every cell is a {@link Lazy}, so LazyLists are thread-safe,
+ * and the computed prefix is shared between all the consumers of a list.
+ * <p>
+ * A list only references the cells after it, so the cells that have been consumed can be garbage collected
+ * as soon as no one references their list anymore. In particular, iterating through a LazyList whose head
+ * is not kept anywhere else runs in bounded memory.
+ *
+ * @author stephanebersier
+ */
+@SuppressWarnings("unused")
+public final class LazyList<T> implements Iterable<T> {
+    private static final Cell<?> EMPTY_CELL = new Cell<>(null, null);
+    private static final LazyList<?> EMPTY = new LazyList<>(Lazy.computed(EMPTY_CELL));
+
+    private final Lazy<Cell<T>> cell;
+
+    private LazyList(Lazy<Cell<T>> cell) {
+        this.cell = cell;
+    }
+
+    /**
+     * @return the empty list
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> LazyList<T> empty() {
+        return (LazyList<T>) EMPTY;
+    }
+
+    /**
+     * @return a list with the given head, whose tail only gets computed when needed
+     */
+    public static <T> LazyList<T> cons(T head, Lazy<LazyList<T>> tail) {
+        return new LazyList<>(Lazy.of(() -> new Cell<>(head, tail.get())));
+    }
+
+    /**
+     * @return the infinite list seed, f(seed), f(f(seed)), ...
+     */
+    public static <T> LazyList<T> iterate(T seed, UnaryOperator<T> f) {
+        return new LazyList<>(Lazy.computed(iterateCell(seed, f)));
+    }
+
+    private static <T> Cell<T> iterateCell(T value, UnaryOperator<T> f) {
+        return new Cell<>(value, new LazyList<>(Lazy.of(() -> iterateCell(f.apply(value), f))));
+    }
+
+    /**
+     * Same as {@link LazyList#of(Iterator, int)} with a chunk size of 1.
+     */
+    public static <T> LazyList<T> of(Iterator<T> iterator) {
+        return of(iterator, 1);
+    }
+
+    /**
+     * Wraps an iterator into a list. The iterator is only advanced when the elements of the list are needed,
+     * chunkSize elements at a time, so that the per-element overhead of the lazy evaluation gets amortized.
+     * <p>
+     * The iterator should not be used anymore by anyone else. If it throws, the elements it already returned
+     * are not lost: accessing the list again resumes the iteration where it stopped.
+     *
+     * @throws java.lang.IllegalArgumentException if chunkSize is not positive
+     */
+    public static <T> LazyList<T> of(Iterator<T> iterator, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        return new LazyList<>(Lazy.of(new Chunker<>(iterator, chunkSize)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T element(Object[] chunk, int index) {
+        return (T) chunk[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Cell<T> emptyCell() {
+        return (Cell<T>) EMPTY_CELL;
+    }
+
+    public boolean isEmpty() {
+        return cell.get() == EMPTY_CELL;
+    }
+
+    /**
+     * @throws java.util.NoSuchElementException if this list is empty
+     */
+    public T head() {
+        return nonEmptyCell().head;
+    }
+
+    /**
+     * @throws java.util.NoSuchElementException if this list is empty
+     */
+    public LazyList<T> tail() {
+        return nonEmptyCell().tail;
+    }
+
+    private Cell<T> nonEmptyCell() {
+        final Cell<T> c = cell.get();
+        if (c == EMPTY_CELL) {
+            throw new NoSuchElementException("Empty LazyList!");
+        }
+        return c;
+    }
+
+    public <U> LazyList<U> map(Function<? super T, ? extends U> f) {
+        return new LazyList<>(Lazy.of(() -> {
+            final Cell<T> c = cell.get();
+            return c == EMPTY_CELL ? emptyCell() : new Cell<>(f.apply(c.head), c.tail.map(f));
+        }));
+    }
+
+    /**
+     * Runs in constant stack space and, as long as no one else references this list,
+     * in constant memory, however many elements get skipped.
+     */
+    public LazyList<T> filter(Predicate<? super T> p) {
+        return new LazyList<>(Lazy.of(new Filterer<>(this, p)));
+    }
+
+    /**
+     * @return the list of the first n elements of this list (or this whole list if it has fewer elements)
+     */
+    public LazyList<T> take(int n) {
+        if (n <= 0) {
+            return empty();
+        }
+        return new LazyList<>(Lazy.of(() -> {
+            final Cell<T> c = cell.get();
+            return c == EMPTY_CELL ? emptyCell() : new Cell<>(c.head, c.tail.take(n - 1));
+        }));
+    }
+
+    /**
+     * Runs in constant stack space and, as long as no one else references this list,
+     * in constant memory, however many elements get dropped. The elements only get skipped
+     * when the returned list is first accessed.
+     *
+     * @return this list without its first n elements (or the empty list if it has fewer elements)
+     */
+    public LazyList<T> drop(int n) {
+        if (n <= 0) {
+            return this;
+        }
+        return new LazyList<>(Lazy.of(new Dropper<>(this, n)));
+    }
+
+    /**
+     * @return the list of the pairs of corresponding elements of this list and the given one,
+     * as long as the shorter of the two
+     */
+    public <U> LazyList<Pair<T, U>> zip(LazyList<U> other) {
+        return new LazyList<>(Lazy.of(() -> {
+            final Cell<T> c = cell.get();
+            final Cell<U> o = other.cell.get();
+            return c == EMPTY_CELL || o == EMPTY_CELL
+                    ? emptyCell()
+                    : new Cell<>(Pair.of(c.head, o.head), c.tail.zip(o.tail));
+        }));
+    }
+
+    /**
+     * The returned iterator only references the list from its current position on.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Cursor<>(this);
+    }
+
+    /**
+     * Only shows the elements that have already been computed (without computing any).
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("LazyList(");
+        String separator = "";
+        Cell<T> c = cell.getIfComputed().orElse(null);
+        while (c != null && c != EMPTY_CELL) {
+            builder.append(separator).append(c.head);
+            separator = ", ";
+            c = c.tail.cell.getIfComputed().orElse(null);
+        }
+        if (c == null) {
+            builder.append(separator).append("_");
+        }
+        return builder.append(")").toString();
+    }
+
+    /**
+     * Iterator that only keeps its current position, so that the cells it has gone past can be garbage collected.
+     */
+    private static final class Cursor<T> implements Iterator<T> {
+        private LazyList<T> rest;
+
+        private Cursor(LazyList<T> start) {
+            this.rest = start;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !rest.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            final Cell<T> c = rest.nonEmptyCell();
+            rest = c.tail;
+            return c.head;
+        }
+    }
+
+    /**
+     * Supplies the cells of a list wrapping an iterator, one chunk at a time.
+     * Only ever called by one thread at a time, as each chunk is computed inside the lock of its Lazy cell.
+     */
+    private static final class Chunker<T> implements Supplier<Cell<T>> {
+        private final Iterator<T> iterator;
+        private final int chunkSize;
+
+        // elements already taken from the iterator for the current chunk, kept in case the iterator throws
+        private Object[] chunk;
+        private int count = 0;
+
+        private Chunker(Iterator<T> iterator, int chunkSize) {
+            this.iterator = iterator;
+            this.chunkSize = chunkSize;
+        }
+
+        /**
+         * Eagerly builds the cells of the next chunk of elements; only the tail of the last one is left lazy.
+         * If the iterator throws, the elements it already returned are kept for the next call.
+         */
+        @Override
+        public Cell<T> get() {
+            if (count == 0 && !iterator.hasNext()) {
+                return emptyCell();
+            }
+            if (chunk == null) {
+                chunk = new Object[chunkSize];
+            }
+            while (count < chunkSize && iterator.hasNext()) {
+                chunk[count] = iterator.next();
+                count++;
+            }
+            final Object[] elements = chunk;
+            final int elementCount = count;
+            chunk = null;
+            count = 0;
+
+            if (elementCount == 0) {
+                return emptyCell();
+            }
+
+            // build the cells back to front
+            LazyList<T> rest = new LazyList<>(Lazy.of(this));
+            for (int i = elementCount - 1; i > 0; i--) {
+                rest = new LazyList<>(Lazy.computed(new Cell<>(element(elements, i), rest)));
+            }
+            return new Cell<>(element(elements, 0), rest);
+        }
+    }
+
+    /**
+     * Supplies the first cell of a filtered list. Only references the current candidate,
+     * so that the skipped cells can be garbage collected while the next match is being looked for,
+     * and so that the search resumes from there if the predicate throws.
+     */
+    private static final class Filterer<T> implements Supplier<Cell<T>> {
+        private final Predicate<? super T> p;
+        private LazyList<T> rest;
+
+        private Filterer(LazyList<T> rest, Predicate<? super T> p) {
+            this.rest = rest;
+            this.p = p;
+        }
+
+        @Override
+        public Cell<T> get() {
+            while (!rest.isEmpty() && !p.test(rest.head())) {
+                rest = rest.tail();
+            }
+            final LazyList<T> match = rest;
+            rest = null;
+            return match.isEmpty() ? emptyCell() : new Cell<>(match.head(), match.tail().filter(p));
+        }
+    }
+
+    /**
+     * Supplies the first cell of a list without its first elements. Only references the current position,
+     * so that the skipped cells can be garbage collected, and so that the skipping resumes from there
+     * if computing one of them throws.
+     */
+    private static final class Dropper<T> implements Supplier<Cell<T>> {
+        private LazyList<T> rest;
+        private int n;
+
+        private Dropper(LazyList<T> rest, int n) {
+            this.rest = rest;
+            this.n = n;
+        }
+
+        @Override
+        public Cell<T> get() {
+            while (n > 0 && !rest.isEmpty()) {
+                rest = rest.tail();
+                n--;
+            }
+            final Cell<T> c = rest.cell.get();
+            rest = null;
+            return c;
+        }
+    }
+
+    private static final class Cell<T> {
+        private final T head;
+        private final LazyList<T> tail;
+
+        private Cell(T head, LazyList<T> tail) {
+            this.head = head;
+            this.tail = tail;
+        }
+    }
+}
@@ -1,6 +1,9 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -17,6 +20,8 @@ import java.util.stream.Stream;
 @SuppressWarnings("unused")
 public final class Utils {
     private static final Logger LOG = java.util.logging.Logger.getAnonymousLogger();
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int WRITE_BLOCK_LENGTH = 8192;
 
     private Utils() {
     }
@@ -59,23 +64,175 @@ public final class Utils {
 
     /**
      * Segments, or 'airs' a string, by adding a space every four characters.
+     * <p>
+     * Whitespace in the given string is kept as is (including leading and trailing whitespace);
+     * spaces are only added between chunks.
      *
      * @param string the string to be segmented
      * @return the segmented string
      */
     public static String segment(String string) {
         final int chunkSize = 4;
-        final StringBuilder builder = new StringBuilder();
-        final int length = string.length();
+        final String separator = " ";
+        final StringBuilder builder = new StringBuilder(segmentedLength(string.length(), chunkSize, separator));
+        try {
+            segment(string, builder, chunkSize, separator);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Segments a char sequence, by writing it to the given output with a separator every chunkSize characters.
+     * The chars and separators are gathered into blocks, so that the output gets written to in bulk,
+     * without creating intermediate strings.
+     *
+     * @param chars     the char sequence to be segmented
+     * @param out       where the segmented char sequence gets written to
+     * @param chunkSize the number of chars between successive separators
+     * @param separator written between successive chunks (but not at the start or the end)
+     * @throws java.lang.IllegalArgumentException if chunkSize is not positive
+     */
+    public static void segment(CharSequence chars, Appendable out, int chunkSize, CharSequence separator)
+            throws IOException {
+        checkChunkSize(chunkSize);
+        final char[] separatorChars = separator.toString().toCharArray();
+        final char[] block = new char[Math.max(WRITE_BLOCK_LENGTH, separatorChars.length)];
+        int blockLength = 0;
+        final int length = chars.length();
         for (int i = 0; i < length; i += chunkSize) {
-            builder.append(string.substring(i, Math.min(i + chunkSize, length)));
-            builder.append(" ");
+            if (i > 0) {
+                if (blockLength + separatorChars.length > block.length) {
+                    write(block, blockLength, out);
+                    blockLength = 0;
+                }
+                System.arraycopy(separatorChars, 0, block, blockLength, separatorChars.length);
+                blockLength += separatorChars.length;
+            }
+
+            // the chunk may not fit in what is left of the block, so it gets copied in as many pieces as needed
+            final int end = Math.min(i + chunkSize, length);
+            int from = i;
+            while (from < end) {
+                if (blockLength == block.length) {
+                    write(block, blockLength, out);
+                    blockLength = 0;
+                }
+                final int to = Math.min(end, from + block.length - blockLength);
+                getChars(chars, from, to, block, blockLength);
+                blockLength += to - from;
+                from = to;
+            }
+        }
+        write(block, blockLength, out);
+    }
+
+    /**
+     * Copies the chars of the given char sequence between from (inclusive) and to (exclusive) into the array.
+     */
+    private static void getChars(CharSequence chars, int from, int to, char[] destination, int destinationStart) {
+        if (chars instanceof String) {
+            ((String) chars).getChars(from, to, destination, destinationStart);
+        } else if (chars instanceof StringBuilder) {
+            ((StringBuilder) chars).getChars(from, to, destination, destinationStart);
+        } else if (chars instanceof StringBuffer) {
+            ((StringBuffer) chars).getChars(from, to, destination, destinationStart);
+        } else {
+            for (int i = from; i < to; i++) {
+                destination[destinationStart++] = chars.charAt(i);
+            }
+        }
+    }
+
+    /**
+     * Segments the hexadecimal representation of a byte array, by adding a space every four hex digits.
+     *
+     * @param bytes the bytes to be written in hex
+     * @return the segmented hex string (lowercase)
+     */
+    public static String segmentHex(ByteArray bytes) {
+        final int chunkSize = 4;
+        final String separator = " ";
+        final StringBuilder builder = new StringBuilder(segmentedLength(2 * bytes.size(), chunkSize, separator));
+        try {
+            segmentHex(bytes, builder, chunkSize, separator);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
-        return builder.toString().trim();
+        return builder.toString();
     }
 
     /**
-     * Pure function that returns the tail of a list (i.e. a copy of the list without the first element).
+     * Writes the hexadecimal representation of a byte array to the given output,
+     * with a separator every chunkSize hex digits.
+     *
+     * @param bytes     the bytes to be written in hex (lowercase, two digits per byte)
+     * @param out       where the segmented hex digits get written to
+     * @param chunkSize the number of hex digits between successive separators
+     * @param separator written between successive chunks (but not at the start or the end)
+     * @throws java.lang.IllegalArgumentException if chunkSize is not positive
+     */
+    public static void segmentHex(ByteArray bytes, Appendable out, int chunkSize, CharSequence separator)
+            throws IOException {
+        checkChunkSize(chunkSize);
+        final ByteBuffer buffer = bytes.asByteBuffer();
+        final char[] separatorChars = separator.toString().toCharArray();
+
+        // digits and separators are gathered into blocks, so that the output gets written to in bulk
+        final char[] block = new char[Math.max(WRITE_BLOCK_LENGTH, separatorChars.length + 1)];
+        int blockLength = 0;
+        int untilSeparator = chunkSize;
+        while (buffer.hasRemaining()) {
+            final byte b = buffer.get();
+            for (int shift = 4; shift >= 0; shift -= 4) {
+                if (blockLength + separatorChars.length + 1 > block.length) {
+                    write(block, blockLength, out);
+                    blockLength = 0;
+                }
+                if (untilSeparator == 0) {
+                    System.arraycopy(separatorChars, 0, block, blockLength, separatorChars.length);
+                    blockLength += separatorChars.length;
+                    untilSeparator = chunkSize;
+                }
+                block[blockLength++] = HEX_DIGITS[(b >> shift) & 0xF];
+                untilSeparator--;
+            }
+        }
+        write(block, blockLength, out);
+    }
+
+    /**
+     * Writes the first length chars of the given array to the output in one call.
+     */
+    private static void write(char[] chars, int length, Appendable out) throws IOException {
+        if (out instanceof Writer) {
+            ((Writer) out).write(chars, 0, length);
+        } else if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(chars, 0, length);
+        } else {
+            out.append(CharBuffer.wrap(chars, 0, length));
+        }
+    }
+
+    /**
+     * @return the length of a char sequence of the given length once segmented
+     */
+    private static int segmentedLength(int length, int chunkSize, CharSequence separator) {
+        return length == 0 ? 0 : length + (length - 1) / chunkSize * separator.length();
+    }
+
+    private static void checkChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+    }
+
+    /**
+     * Pure function that returns the tail of a list (i.e. an immutable list of the elements after the first one).
+     * <p>
+     * Runs in O(1) if the given list is an {@link ImmutableList}. Otherwise, it is first copied into one,
+     * so that taking the tail of the result again runs in O(1). The returned list is not serializable.
      *
      * @throws java.lang.IllegalArgumentException if input list is empty
      */
@@ -83,34 +240,22 @@ public final class Utils {
         if (list.isEmpty()) {
             throw new IllegalArgumentException("Cannot get tail of empty list!");
         } else {
-            final List<T> tail = new ArrayList<>(list.size() - 1);
-            for (int i = 1; i < list.size(); i++) {
-                tail.add(list.get(i));
-            }
-            return tail;
+            return ImmutableList.copyOf(list).tail();
         }
     }
 
     /**
      * Reverse a list.
      * <p>
-     * Pure function. Guaranteed to run in O(list.size()), as long as the given list can be traversed in O(list.size()).
+     * Pure function. Runs in O(1) if the given list is an {@link ImmutableList}. Otherwise, it is guaranteed to run
+     * in O(list.size()), as long as the given list can be traversed in O(list.size()).
      *
      * @param list the list whose reverse we want
-     * @return a new list which contains the elements of the given list in reversed order
+     * @return an immutable (and not serializable) list which contains the elements of the given list
+     * in reversed order
      */
     public static <T> List<T> reversed(List<T> list) {
-
-        // make an arrayList copy of the given list if it isn't already one (so that we can get O(1) random access)
-        final ArrayList<T> arrayList = (list instanceof ArrayList) ? (ArrayList<T>) list : new ArrayList<>(list);
-
-        // add all elements in reverse order to a new list
-        final List<T> reversed = new ArrayList<>(list.size());
-        for (int i = list.size() - 1; i >= 0; i--) {
-            reversed.add(arrayList.get(i));
-        }
-
-        return reversed;
+        return ImmutableList.copyOf(list).reversed();
     }
 
     /**